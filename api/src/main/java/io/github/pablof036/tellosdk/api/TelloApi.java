@@ -1,10 +1,17 @@
 package io.github.pablof036.tellosdk.api;
 
+import io.github.pablof036.tellosdk.implementation.Command;
 import io.github.pablof036.tellosdk.implementation.Connection;
+import io.github.pablof036.tellosdk.implementation.IoThreads;
+import io.github.pablof036.tellosdk.implementation.LinkStats;
+import io.github.pablof036.tellosdk.implementation.LinkSupervisor;
 import io.github.pablof036.tellosdk.implementation.State;
 
-
+import java.net.InetAddress;
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
 import java.util.function.Consumer;
 
 /**
@@ -16,40 +23,126 @@ public class TelloApi {
 
     private final Listener<State> stateListener = new Listener<>();
     private final Listener<Throwable> disconnectionListener = new Listener<>();
-    private final Connection connection = new Connection();
+    private final Connection connection;
+    private final LinkSupervisor linkSupervisor;
+
+    /**
+     * Creates an API that uses the default threads: the common pool and platform threads on Java 8,
+     * virtual threads on Java 21 and newer.
+     */
+    public TelloApi() {
+        this(IoThreads.executor(), IoThreads.threadFactory());
+    }
+
+    /**
+     * Creates an API that uses the given threads for blocking I/O.
+     *
+     * @param executor executor for blocking command I/O and state callbacks
+     * @param threadFactory factory for long running loops, such as state reception
+     */
+    public TelloApi(Executor executor, ThreadFactory threadFactory) {
+        this(new Connection(executor, threadFactory));
+    }
+
+    /**
+     * Creates an API for the drone at the given address, such as a Tello EDU in station mode, that uses the
+     * default threads.
+     *
+     * @param address drone address
+     */
+    public TelloApi(InetAddress address) {
+        this(address, IoThreads.executor(), IoThreads.threadFactory());
+    }
+
+    /**
+     * Creates an API for the drone at the given address that uses the given threads for blocking I/O.
+     *
+     * @param address drone address
+     * @param executor executor for blocking command I/O and state callbacks
+     * @param threadFactory factory for long running loops, such as state reception
+     */
+    public TelloApi(InetAddress address, Executor executor, ThreadFactory threadFactory) {
+        this(new Connection(address, executor, threadFactory));
+    }
+
+    private TelloApi(Connection connection) {
+        this.connection = connection;
+        linkSupervisor = new LinkSupervisor(connection, stateListener::push, t -> {
+            disconnect();
+            disconnectionListener.push(t);
+        });
+    }
 
     /**
      * Opens connection with drone and enters SDK mode.
      * Will be completed with an exception if the connection failed.
+     * While connected, a keepalive is sent whenever no command has been sent for a while, so the drone does not
+     * auto land, and the connection is re-established if state updates stop arriving.
      */
     public CompletableFuture<Void> connect() {
+        return connect(Connection.DEFAULT_HANDSHAKE_ATTEMPT_MILLIS, Connection.DEFAULT_HANDSHAKE_ATTEMPTS)
+                .thenApply(d -> null);
+    }
+
+    /**
+     * Opens connection with drone and enters SDK mode, resending the "command" packet each time the given timeout
+     * expires without a reply.
+     * Will be completed with an exception if the drone did not reply to any attempt.
+     *
+     * @param attemptTimeoutMillis time to wait for the reply to each attempt
+     * @param attempts maximum number of times the packet is sent
+     * @return time it took the drone to reply to the handshake
+     */
+    public CompletableFuture<Duration> connect(int attemptTimeoutMillis, int attempts) {
         return CompletableFuture.supplyAsync(() -> {
-                    connection.connect();
-                    connection.scheduleCommand("command").join();
-                    return (Void) null;
-        }).whenComplete((u, t) -> {
-            if (t != null) {
-                connection.disconnect();
-            } else {
-                connection.startReceivingState((s, thr) -> {
-                    if (s != null) {
-                        stateListener.push(s);
-                    } else {
-                        disconnect();
-                        disconnectionListener.push(thr);
-                    }
-                });
+            try {
+                connection.connect();
+                long latency = connection.enterSdkMode(attemptTimeoutMillis, attempts);
+                linkSupervisor.start();
+                return Duration.ofNanos(latency);
+            } catch (RuntimeException e) {
+                disconnect();
+                throw e;
             }
-        });
+        }, connection.getExecutor());
     }
 
     /**
      * Closes connection with drone
      */
     public void disconnect() {
+        linkSupervisor.stop();
         connection.disconnect();
     }
 
+    /**
+     * Get the drone address.
+     */
+    public InetAddress getAddress() {
+        return connection.getAddress();
+    }
+
+    /**
+     * Get the executor used for blocking command I/O.
+     */
+    public Executor getExecutor() {
+        return connection.getExecutor();
+    }
+
+    /**
+     * Get the thread factory used for long running loops, such as state reception.
+     */
+    public ThreadFactory getThreadFactory() {
+        return connection.getThreadFactory();
+    }
+
+    /**
+     * Get link quality statistics: state update gaps, keepalives and reconnections.
+     */
+    public LinkStats getLinkStats() {
+        return linkSupervisor.getStats();
+    }
+
     /**
      * Adds a callback that will be used each time a state update is received.
      * The callback will be passed the most recent parsed state and, if any exception arose, a throwable parameter with that exception.
@@ -70,7 +163,7 @@ public class TelloApi {
     }
 
     /**
-     * Adds a callback that will be used if a sudden disconnection occurs.
+     * Adds a callback that will be used if a sudden disconnection occurs and the connection could not be re-established.
      *
      * @param listener callback
      */
@@ -93,8 +186,7 @@ public class TelloApi {
      * @return drone speed in cm/s (10-100).
      */
     public CompletableFuture<Integer> getSpeed() {
-        return connection.scheduleReadCommand("speed?")
-                .thenApply(Integer::parseInt);
+        return connection.scheduleReadIntCommand(Command.SPEED);
     }
 
     /**
@@ -103,50 +195,49 @@ public class TelloApi {
      * @return battery level (0-100).
      */
     public CompletableFuture<Integer> getBatteryLevel() {
-        return connection.scheduleReadCommand("bat?")
-                .thenApply(Integer::parseInt);
+        return connection.scheduleReadIntCommand(Command.BATTERY);
     }
 
-    private CompletableFuture<Void> directionCommand(String command, int distance) {
+    private CompletableFuture<Void> directionCommand(Command command, int distance) {
         if (distance < 20 || distance > 500) {
             throw new IllegalArgumentException("distance must be between 20 and 500cm");
         }
-        return connection.scheduleCommand(String.format("%s %s", command, distance));
+        return connection.scheduleCommand(command, distance);
     }
 
-    private CompletableFuture<Void> rotationCommand(String command, int degrees) {
+    private CompletableFuture<Void> rotationCommand(Command command, int degrees) {
         if (degrees < 0 || degrees > 360) {
             throw new IllegalArgumentException("rotation must be between 0 and 360 degrees");
         }
-        return connection.scheduleCommand(String.format("%s %s", command, degrees));
+        return connection.scheduleCommand(command, degrees);
     }
 
     /**
      * Control command. Starts auto takeoff.
      */
     public CompletableFuture<Void> takeOff() {
-        return connection.scheduleCommand("takeoff");
+        return connection.scheduleCommand(Command.TAKEOFF);
     }
 
     /**
      * Control command. Starts auto landing.
      */
     public CompletableFuture<Void> land() {
-        return connection.scheduleCommand("land");
+        return connection.scheduleCommand(Command.LAND);
     }
 
     /**
      * Control command. Starts video stream on UDP port 11111.
      */
     public CompletableFuture<Void> startVideoStream() {
-        return connection.scheduleCommand("streamon");
+        return connection.scheduleCommand(Command.STREAM_ON);
     }
 
     /**
      * Control command. Stops video stream.
      */
     public CompletableFuture<Void> stopVideoStream() {
-        return connection.scheduleCommand("streamoff");
+        return connection.scheduleCommand(Command.STREAM_OFF);
     }
 
     /**
@@ -156,7 +247,7 @@ public class TelloApi {
      * @param distance distance in cm (20-500)
      */
     public CompletableFuture<Void> goForward(int distance) {
-        return directionCommand("forward", distance);
+        return directionCommand(Command.FORWARD, distance);
     }
 
     /**
@@ -166,7 +257,7 @@ public class TelloApi {
      * @param distance distance in cm (20-500)
      */
     public CompletableFuture<Void> goBackwards(int distance) {
-        return directionCommand("back", distance);
+        return directionCommand(Command.BACK, distance);
     }
 
     /**
@@ -176,7 +267,7 @@ public class TelloApi {
      * @param distance distance in cm (20-500)
      */
     public CompletableFuture<Void> goUp(int distance) {
-        return directionCommand("up", distance);
+        return directionCommand(Command.UP, distance);
     }
 
     /**
@@ -186,7 +277,7 @@ public class TelloApi {
      * @param distance distance in cm (20-500)
      */
     public CompletableFuture<Void> goDown(int distance) {
-        return directionCommand("down", distance);
+        return directionCommand(Command.DOWN, distance);
     }
 
     /**
@@ -196,7 +287,7 @@ public class TelloApi {
      * @param distance distance in cm (20-500)
      */
     public CompletableFuture<Void> goLeft(int distance) {
-        return directionCommand("left", distance);
+        return directionCommand(Command.LEFT, distance);
     }
 
     /**
@@ -206,7 +297,7 @@ public class TelloApi {
      * @param distance distance in cm (20-500)
      */
     public CompletableFuture<Void> goRight(int distance) {
-        return directionCommand("right", distance);
+        return directionCommand(Command.RIGHT, distance);
     }
 
     /**
@@ -216,7 +307,7 @@ public class TelloApi {
      * @param degrees degrees (0-360)
      */
     public CompletableFuture<Void> rotateClockwise(int degrees) {
-        return rotationCommand("cw", degrees);
+        return rotationCommand(Command.CLOCKWISE, degrees);
     }
 
     /**
@@ -226,35 +317,35 @@ public class TelloApi {
      * @param degrees degrees (0-360)
      */
     public CompletableFuture<Void> rotateCounterclockwise(int degrees) {
-        return rotationCommand("ccw", degrees);
+        return rotationCommand(Command.COUNTERCLOCKWISE, degrees);
     }
 
     /**
      * Control command. Starts a flip forwards.
      */
     public CompletableFuture<Void> doForwardFlip() {
-        return connection.scheduleCommand("flip f");
+        return connection.scheduleCommand(Command.FLIP_FORWARD);
     }
 
     /**
      * Control command. Starts a flip backwards.
      */
     public CompletableFuture<Void> doBackwardsFlip() {
-        return connection.scheduleCommand("flip b");
+        return connection.scheduleCommand(Command.FLIP_BACKWARDS);
     }
 
     /**
      * Control command. Starts a left flip.
      */
     public CompletableFuture<Void> doLeftFlip() {
-        return connection.scheduleCommand("flip l");
+        return connection.scheduleCommand(Command.FLIP_LEFT);
     }
 
     /**
      * Control command. Starts a right flip.
      */
     public CompletableFuture<Void> doRightFlip() {
-        return connection.scheduleCommand("flip r");
+        return connection.scheduleCommand(Command.FLIP_RIGHT);
     }
 
 }
@@ -0,0 +1,47 @@
+package io.github.pablof036.tellosdk.api;
+
+import io.github.pablof036.tellosdk.implementation.Connection;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Connects many drones at once. All handshakes run concurrently, so bringing up a fleet takes as long as the
+ * slowest drone instead of the sum of all of them.
+ * Each drone must have its own address (see {@link TelloApi#TelloApi(java.net.InetAddress)}).
+ */
+public class TelloFleet {
+    private TelloFleet() {
+    }
+
+    /**
+     * Connects every drone and enters SDK mode using the default handshake timeouts.
+     *
+     * @param drones drones to connect
+     * @return for each drone, in iteration order, a future completed with its handshake latency once it is ready,
+     * or with an exception if it could not be connected
+     */
+    public static Map<TelloApi, CompletableFuture<Duration>> connectAll(Collection<TelloApi> drones) {
+        return connectAll(drones, Connection.DEFAULT_HANDSHAKE_ATTEMPT_MILLIS, Connection.DEFAULT_HANDSHAKE_ATTEMPTS);
+    }
+
+    /**
+     * Connects every drone and enters SDK mode.
+     *
+     * @param drones drones to connect
+     * @param attemptTimeoutMillis time to wait for the reply to each handshake attempt
+     * @param attempts maximum number of handshake attempts per drone
+     * @return for each drone, in iteration order, a future completed with its handshake latency once it is ready,
+     * or with an exception if it could not be connected
+     */
+    public static Map<TelloApi, CompletableFuture<Duration>> connectAll(Collection<TelloApi> drones, int attemptTimeoutMillis, int attempts) {
+        Map<TelloApi, CompletableFuture<Duration>> readiness = new LinkedHashMap<>();
+        for (TelloApi drone : drones) {
+            readiness.put(drone, drone.connect(attemptTimeoutMillis, attempts));
+        }
+        return readiness;
+    }
+}
@@ -0,0 +1,75 @@
+package io.github.pablof036.tellosdk.implementation;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Table of SDK commands, encoded once so sending a command does not need to build or encode a String.
+ */
+public enum Command {
+    COMMAND("command"),
+    TAKEOFF("takeoff"),
+    LAND("land"),
+    STREAM_ON("streamon"),
+    STREAM_OFF("streamoff"),
+    FORWARD("forward"),
+    BACK("back"),
+    UP("up"),
+    DOWN("down"),
+    LEFT("left"),
+    RIGHT("right"),
+    CLOCKWISE("cw"),
+    COUNTERCLOCKWISE("ccw"),
+    FLIP_FORWARD("flip f"),
+    FLIP_BACKWARDS("flip b"),
+    FLIP_LEFT("flip l"),
+    FLIP_RIGHT("flip r"),
+    SPEED("speed?"),
+    BATTERY("bat?");
+
+    private final byte[] bytes;
+
+    Command(String text) {
+        this.bytes = text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Writes the command into the given buffer.
+     *
+     * @return number of bytes written
+     */
+    int encode(byte[] buffer) {
+        System.arraycopy(bytes, 0, buffer, 0, bytes.length);
+        return bytes.length;
+    }
+
+    /**
+     * Writes the command followed by a space and the given argument into the given buffer.
+     *
+     * @return number of bytes written
+     */
+    int encode(byte[] buffer, int argument) {
+        int length = encode(buffer);
+        buffer[length++] = ' ';
+        return writeInt(buffer, length, argument);
+    }
+
+    private static int writeInt(byte[] buffer, int offset, int value) {
+        long remaining = value;
+        if (remaining < 0) {
+            buffer[offset++] = '-';
+            remaining = -remaining;
+        }
+
+        int digits = 1;
+        for (long i = remaining; i >= 10; i /= 10) {
+            digits++;
+        }
+
+        int end = offset + digits;
+        for (int i = end - 1; i >= offset; i--) {
+            buffer[i] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        return end;
+    }
+}
@@ -3,49 +3,179 @@ package io.github.pablof036.tellosdk.implementation;
 import java.io.IOException;
 import java.net.*;
 import java.nio.charset.StandardCharsets;
+import java.util.Objects;
 import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 /**
  * Manages connection to Tello Drone
  */
 public class Connection {
-    private boolean connected;
-    private DatagramSocket commandSocket;
-    private StateServer stateServer;
+    public static final int DEFAULT_HANDSHAKE_ATTEMPT_MILLIS = 500;
+    public static final int DEFAULT_HANDSHAKE_ATTEMPTS = 10;
+
+    private static final int COMMAND_TIMEOUT_MILLIS = 5000;
+    private static final long STALE_REPLY_WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(COMMAND_TIMEOUT_MILLIS);
+
+    private final InetAddress address;
+    private volatile boolean connected;
+    private volatile DatagramSocket commandSocket;
+    private volatile int epoch;
+    private volatile StateServer stateServer;
+    private volatile long lastCommandNanos = System.nanoTime();
+    private final byte[] sendBuffer = new byte[128];
+    private final byte[] receiveBuffer = new byte[1024];
+    private final DatagramPacket sendPacket = new DatagramPacket(sendBuffer, 0);
+    private final DatagramPacket receivePacket = new DatagramPacket(receiveBuffer, receiveBuffer.length);
+    private int staleReplies;
+    private long lastTimeoutNanos;
+    private final ReentrantLock commandLock = new ReentrantLock();
+    private final Executor executor;
+    private final ThreadFactory threadFactory;
+
+    /**
+     * Creates a connection to a drone at its default address that uses the default {@link IoThreads}.
+     */
+    public Connection() {
+        this(IoThreads.executor(), IoThreads.threadFactory());
+    }
+
+    /**
+     * Creates a connection to a drone at its default address.
+     *
+     * @param executor executor for blocking command I/O and state callbacks
+     * @param threadFactory factory for the state reception thread
+     */
+    public Connection(Executor executor, ThreadFactory threadFactory) {
+        this(defaultAddress(), executor, threadFactory);
+    }
+
+    /**
+     * @param address address of the drone, such as the one assigned to a Tello EDU in station mode
+     * @param executor executor for blocking command I/O and state callbacks
+     * @param threadFactory factory for the state reception thread
+     */
+    public Connection(InetAddress address, Executor executor, ThreadFactory threadFactory) {
+        this.address = Objects.requireNonNull(address);
+        this.executor = Objects.requireNonNull(executor);
+        this.threadFactory = Objects.requireNonNull(threadFactory);
+    }
+
+    private static InetAddress defaultAddress() {
+        try {
+            return InetAddress.getByName("192.168.10.1");
+        } catch (UnknownHostException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
     public void connect() {
+        DatagramSocket socket;
         try {
-            commandSocket = new DatagramSocket();
-            commandSocket.setSoTimeout(5000);
-            commandSocket.connect(InetAddress.getByName("192.168.10.1"), 8889);
-        } catch (UnknownHostException | SocketException e) {
+            socket = new DatagramSocket();
+            socket.setSoTimeout(COMMAND_TIMEOUT_MILLIS);
+            socket.connect(address, 8889);
+        } catch (SocketException e) {
             throw new RuntimeException(e);
         }
 
-        connected = true;
+        // swapped under the command lock, so a command never sends on one socket and receives on another
+        commandLock.lock();
+        try {
+            commandSocket = socket;
+            staleReplies = 0;
+            epoch++;
+            connected = true;
+        } finally {
+            commandLock.unlock();
+        }
     }
 
+    /**
+     * Closes the connection. The command socket is closed without taking the command lock, which unblocks a command
+     * waiting for its reply.
+     */
     public void disconnect() {
-        commandSocket.close();
-        stopReceivingState();
         connected = false;
+        DatagramSocket socket = commandSocket;
+        if (socket != null) {
+            socket.close();
+        }
+        stopReceivingState();
+    }
+
+    /**
+     * @return number of times {@link #connect()} has succeeded, identifying the current command socket
+     */
+    int getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Closes the connection only if it has not been re-opened since the given epoch.
+     */
+    void disconnect(int expectedEpoch) {
+        if (epoch == expectedEpoch) {
+            disconnect();
+        }
+    }
+
+    /**
+     * Enters SDK mode. Instead of waiting for a single slow reply, the "command" packet is resent every time a short
+     * timeout expires, which is safe as entering SDK mode is idempotent.
+     * Blocks until the drone replies or all attempts time out.
+     *
+     * @param attemptTimeoutMillis time to wait for the reply to each attempt
+     * @param attempts maximum number of times the packet is sent
+     * @return time from the first attempt until the drone replied, in nanoseconds
+     */
+    public long enterSdkMode(int attemptTimeoutMillis, int attempts) {
+        if (attemptTimeoutMillis <= 0 || attempts <= 0) {
+            throw new IllegalArgumentException("timeout and attempts must be positive");
+        }
+        return blocking(() -> withCommandLock(() -> {
+            setTimeout(attemptTimeoutMillis);
+            try {
+                long start = System.nanoTime();
+                RuntimeException failure = null;
+                for (int i = 0; i < attempts && connected; i++) {
+                    try {
+                        sendCommand(Command.COMMAND);
+                        long latency = System.nanoTime() - start;
+                        if (staleReplies > 0) {
+                            // most timed out attempts were simply lost while the drone booted, so only discard the
+                            // replies already here; any later one is an "ok" to "command", not worth waiting for
+                            discardStaleReplies(1);
+                            staleReplies = 0;
+                        }
+                        return latency;
+                    } catch (RuntimeException e) {
+                        failure = e;
+                    }
+                }
+                throw failure != null ? failure : new RuntimeException("Drone not connected");
+            } finally {
+                setTimeout(COMMAND_TIMEOUT_MILLIS);
+            }
+        }));
     }
 
     public void startReceivingState(BiConsumer<State, Throwable> stateCallback) {
+        stateServer = new StateServer(address, stateCallback, executor, threadFactory);
         try {
-            stateServer = new StateServer(stateCallback);
+            stateServer.start();
         } catch (SocketException e) {
+            stateServer = null;
             throw new RuntimeException(e);
         }
-        stateServer.start();
     }
 
     public void stopReceivingState() {
         if (stateServer != null) {
-            stateServer.interrupt();
             try {
-                stateServer.join();
+                stateServer.stop();
             } catch (InterruptedException e) {
                 throw new RuntimeException(e);
             }
@@ -53,38 +183,229 @@ public class Connection {
         }
     }
 
+    public InetAddress getAddress() {
+        return address;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public ThreadFactory getThreadFactory() {
+        return threadFactory;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * @return {@link System#nanoTime()} at which the last command was sent
+     */
+    public long getLastCommandNanos() {
+        return lastCommandNanos;
+    }
+
+    /**
+     * @return {@link System#nanoTime()} at which the last state packet was received, or at which state reception
+     * started if none has been received yet
+     */
+    public long getLastStateNanos() {
+        StateServer server = stateServer;
+        return server != null ? server.getLastReceiveNanos() : lastCommandNanos;
+    }
+
     public CompletableFuture<Void> scheduleCommand(String message) {
-        return CompletableFuture.supplyAsync(() -> {
+        return CompletableFuture.supplyAsync(() -> withCommandLock(() -> {
             sendCommand(message);
             return null;
-        });
+        }), executor);
+    }
+
+    public CompletableFuture<Void> scheduleCommand(Command command) {
+        return CompletableFuture.supplyAsync(() -> withCommandLock(() -> {
+            sendCommand(command);
+            return null;
+        }), executor);
+    }
+
+    public CompletableFuture<Void> scheduleCommand(Command command, int argument) {
+        return CompletableFuture.supplyAsync(() -> withCommandLock(() -> {
+            sendCommand(command, argument);
+            return null;
+        }), executor);
     }
 
     public CompletableFuture<String> scheduleReadCommand(String message) {
-        return CompletableFuture.supplyAsync(() -> sendCommand(message));
+        return CompletableFuture.supplyAsync(() -> withCommandLock(() -> readString(sendCommand(message))), executor);
+    }
+
+    public CompletableFuture<String> scheduleReadCommand(Command command) {
+        return CompletableFuture.supplyAsync(() -> withCommandLock(() -> readString(sendCommand(command))), executor);
     }
 
-    private synchronized String sendCommand(String message) {
+    /**
+     * Sends a read command whose response is a number, such as "bat?", and parses it straight from the response bytes.
+     */
+    public CompletableFuture<Integer> scheduleReadIntCommand(Command command) {
+        return CompletableFuture.supplyAsync(() -> withCommandLock(() -> {
+            int length = sendCommand(command);
+            if (Response.classify(receiveBuffer, length) != Response.Kind.NUMERIC) {
+                throw new RuntimeException("expected a numeric reply to " + command + ", got: " + readString(length).trim());
+            }
+            return Response.parseInt(receiveBuffer, length);
+        }), executor);
+    }
+
+    /**
+     * Runs the given action holding the command lock, which guards the shared send and receive buffers.
+     * A {@link ReentrantLock} is used instead of synchronized so a virtual thread waiting for the drone's reply does
+     * not pin its carrier thread.
+     */
+    private <T> T withCommandLock(Supplier<T> action) {
+        commandLock.lock();
+        try {
+            return action.get();
+        } finally {
+            commandLock.unlock();
+        }
+    }
+
+    /**
+     * Runs a blocking action. When called from a {@link ForkJoinPool} worker, such as the common pool, the pool is
+     * allowed to add a thread meanwhile, so blocking many workers at once does not starve it.
+     */
+    private static <T> T blocking(Supplier<T> action) {
+        Blocker<T> blocker = new Blocker<>(action);
+        try {
+            ForkJoinPool.managedBlock(blocker);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        return blocker.result;
+    }
+
+    private static class Blocker<T> implements ForkJoinPool.ManagedBlocker {
+        private final Supplier<T> action;
+        private T result;
+        private boolean done;
+
+        Blocker(Supplier<T> action) {
+            this.action = action;
+        }
+
+        @Override
+        public boolean block() {
+            result = action.get();
+            done = true;
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return done;
+        }
+    }
+
+    private void setTimeout(int timeoutMillis) {
+        try {
+            commandSocket.setSoTimeout(timeoutMillis);
+        } catch (SocketException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Discards replies to commands that timed out, so they are not taken as the reply to the next command.
+     * Each discarded reply is subtracted from the count of outstanding ones; replies that have not arrived yet stay
+     * counted until the stale reply window after the last timeout has passed.
+     *
+     * @param waitMillis time to wait for each outstanding reply
+     */
+    private void discardStaleReplies(int waitMillis) {
+        if (System.nanoTime() - lastTimeoutNanos > STALE_REPLY_WINDOW_NANOS) {
+            staleReplies = 0;
+            return;
+        }
+        try {
+            int timeout = commandSocket.getSoTimeout();
+            commandSocket.setSoTimeout(waitMillis);
+            try {
+                while (staleReplies > 0) {
+                    receivePacket.setData(receiveBuffer, 0, receiveBuffer.length);
+                    commandSocket.receive(receivePacket);
+                    staleReplies--;
+                }
+            } catch (SocketTimeoutException e) {
+                // not arrived yet, tried again before the next command
+            } finally {
+                commandSocket.setSoTimeout(timeout);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private String readString(int length) {
+        return new String(receiveBuffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private int sendCommand(String message) {
+        if (message.length() > sendBuffer.length) {
+            throw new IllegalArgumentException("command too long");
+        }
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (c > 0x7f) {
+                throw new IllegalArgumentException("command must be ASCII");
+            }
+            sendBuffer[i] = (byte) c;
+        }
+        return exchange(message.length());
+    }
+
+    private int sendCommand(Command command) {
+        return exchange(command.encode(sendBuffer));
+    }
+
+    private int sendCommand(Command command, int argument) {
+        return exchange(command.encode(sendBuffer, argument));
+    }
+
+    /**
+     * Sends the first length bytes of the send buffer and waits for the response.
+     * Must be called while holding the command lock, as both buffers are shared.
+     *
+     * @return length of the response stored in the receive buffer
+     */
+    private int exchange(int length) {
         if (!connected) {
             throw new RuntimeException("Drone not connected");
         }
 
-        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
-        String responseMessage;
-
         try {
-            commandSocket.send(new DatagramPacket(bytes, bytes.length));
-            DatagramPacket response = new DatagramPacket(new byte[1024], 1024);
-            commandSocket.receive(response);
-            responseMessage = new String(response.getData(), 0, response.getLength(), StandardCharsets.UTF_8);
+            if (staleReplies > 0) {
+                discardStaleReplies(1);
+            }
+            sendPacket.setData(sendBuffer, 0, length);
+            commandSocket.send(sendPacket);
+            lastCommandNanos = System.nanoTime();
+            receivePacket.setData(receiveBuffer, 0, receiveBuffer.length);
+            commandSocket.receive(receivePacket);
+        } catch (SocketTimeoutException e) {
+            staleReplies++;
+            lastTimeoutNanos = System.nanoTime();
+            throw new RuntimeException(e);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
 
-        if (responseMessage.equals("error")) {
+        int responseLength = receivePacket.getLength();
+        if (Response.classify(receiveBuffer, responseLength) == Response.Kind.ERROR) {
             throw new RuntimeException("command failed");
         }
 
-        return responseMessage;
+        return responseLength;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,36 @@
+package io.github.pablof036.tellosdk.implementation;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Provides the default threads used for blocking drone I/O.
+ * This version keeps the Java 8 behavior: commands run on the same pool {@link java.util.concurrent.CompletableFuture}
+ * uses by default, and state reception gets a platform thread.
+ * On Java 21 and newer it is replaced by the version in META-INF/versions/21 of the multi-release JAR, which uses
+ * virtual threads.
+ */
+public final class IoThreads {
+    // like CompletableFuture's default async pool: the common pool cannot run tasks in parallel with one core or two
+    private static final Executor executor = ForkJoinPool.getCommonPoolParallelism() > 1
+            ? ForkJoinPool.commonPool()
+            : r -> new Thread(r).start();
+
+    private IoThreads() {
+    }
+
+    /**
+     * @return executor used for blocking command I/O and for state callbacks
+     */
+    public static Executor executor() {
+        return executor;
+    }
+
+    /**
+     * @return factory for long running loops, such as state reception
+     */
+    public static ThreadFactory threadFactory() {
+        return Thread::new;
+    }
+}
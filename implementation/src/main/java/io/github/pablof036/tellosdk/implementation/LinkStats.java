@@ -0,0 +1,81 @@
+package io.github.pablof036.tellosdk.implementation;
+
+/**
+ * Snapshot of link quality statistics collected by {@link LinkSupervisor}
+ */
+public class LinkStats {
+    private final boolean reconnecting;
+    private final long millisSinceLastState;
+    private final long longestStateGapMillis;
+    private final long stateGaps;
+    private final long keepalivesSent;
+    private final long keepaliveFailures;
+    private final long reconnectAttempts;
+    private final long reconnects;
+
+    public LinkStats(boolean reconnecting, long millisSinceLastState, long longestStateGapMillis, long stateGaps, long keepalivesSent, long keepaliveFailures, long reconnectAttempts, long reconnects) {
+        this.reconnecting = reconnecting;
+        this.millisSinceLastState = millisSinceLastState;
+        this.longestStateGapMillis = longestStateGapMillis;
+        this.stateGaps = stateGaps;
+        this.keepalivesSent = keepalivesSent;
+        this.keepaliveFailures = keepaliveFailures;
+        this.reconnectAttempts = reconnectAttempts;
+        this.reconnects = reconnects;
+    }
+
+    /**
+     * @return whether the link was lost and is being re-established
+     */
+    public boolean isReconnecting() {
+        return reconnecting;
+    }
+
+    public long getMillisSinceLastState() {
+        return millisSinceLastState;
+    }
+
+    public long getLongestStateGapMillis() {
+        return longestStateGapMillis;
+    }
+
+    /**
+     * @return number of times state packets stopped arriving for longer than the gap threshold
+     */
+    public long getStateGaps() {
+        return stateGaps;
+    }
+
+    public long getKeepalivesSent() {
+        return keepalivesSent;
+    }
+
+    public long getKeepaliveFailures() {
+        return keepaliveFailures;
+    }
+
+    public long getReconnectAttempts() {
+        return reconnectAttempts;
+    }
+
+    /**
+     * @return number of successful reconnections
+     */
+    public long getReconnects() {
+        return reconnects;
+    }
+
+    @Override
+    public String toString() {
+        return "LinkStats{" +
+                "reconnecting=" + reconnecting +
+                ", millisSinceLastState=" + millisSinceLastState +
+                ", longestStateGapMillis=" + longestStateGapMillis +
+                ", stateGaps=" + stateGaps +
+                ", keepalivesSent=" + keepalivesSent +
+                ", keepaliveFailures=" + keepaliveFailures +
+                ", reconnectAttempts=" + reconnectAttempts +
+                ", reconnects=" + reconnects +
+                '}';
+    }
+}
@@ -0,0 +1,291 @@
+package io.github.pablof036.tellosdk.implementation;
+
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the link with the drone alive and healthy.
+ * Sends a keepalive when no command has been sent for a while, so the drone does not auto land, watches the
+ * state stream for gaps and, if state packets stop arriving, reconnects with bounded exponential backoff.
+ * All supervisors share a single daemon thread for their periodic checks; blocking I/O is never done on it.
+ */
+public class LinkSupervisor {
+    public static final long DEFAULT_KEEPALIVE_MILLIS = 5000;
+    public static final long DEFAULT_GAP_MILLIS = 300;
+    public static final long DEFAULT_LOSS_MILLIS = 1000;
+    public static final long DEFAULT_MAX_BACKOFF_MILLIS = 4000;
+    public static final int DEFAULT_MAX_RECONNECT_ATTEMPTS = 6;
+
+    private static final long CHECK_INTERVAL_MILLIS = 100;
+    private static final long INITIAL_BACKOFF_MILLIS = 250;
+    private static final long STABLE_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "tello-link-supervisor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Connection connection;
+    private final Consumer<State> onState;
+    private final Consumer<Throwable> onLinkLost;
+    private final long keepaliveNanos;
+    private final long gapNanos;
+    private final long lossNanos;
+    private final long maxBackoffMillis;
+    private final int maxReconnectAttempts;
+
+    private volatile boolean running;
+    private volatile boolean reconnecting;
+    private volatile boolean keepalivePending;
+    private volatile int generation;
+    private ScheduledFuture<?> checkTask;
+    private int consecutiveAttempts;
+    private long backoffMillis = INITIAL_BACKOFF_MILLIS;
+    private long recoveredNanos;
+
+    private boolean inGap;
+    private long currentGapNanos;
+    private volatile long stateGaps;
+    private volatile long longestGapNanos;
+    private final AtomicLong keepalivesSent = new AtomicLong();
+    private final AtomicLong keepaliveFailures = new AtomicLong();
+    private final AtomicLong reconnectAttempts = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+
+    /**
+     * @param connection connection to supervise, already connected and in SDK mode
+     * @param onState callback for each received state
+     * @param onLinkLost callback used once if the link could not be re-established
+     */
+    public LinkSupervisor(Connection connection, Consumer<State> onState, Consumer<Throwable> onLinkLost) {
+        this(connection, onState, onLinkLost, DEFAULT_KEEPALIVE_MILLIS, DEFAULT_GAP_MILLIS, DEFAULT_LOSS_MILLIS,
+                DEFAULT_MAX_BACKOFF_MILLIS, DEFAULT_MAX_RECONNECT_ATTEMPTS);
+    }
+
+    /**
+     * @param connection connection to supervise, already connected and in SDK mode
+     * @param onState callback for each received state
+     * @param onLinkLost callback used once if the link could not be re-established
+     * @param keepaliveMillis idle time of the command channel after which a keepalive is sent
+     * @param gapMillis time without state packets after which a gap is counted
+     * @param lossMillis time without state packets after which the link is considered lost
+     * @param maxBackoffMillis upper bound of the delay between reconnect attempts
+     * @param maxReconnectAttempts reconnect attempts before giving up
+     */
+    public LinkSupervisor(Connection connection, Consumer<State> onState, Consumer<Throwable> onLinkLost,
+                          long keepaliveMillis, long gapMillis, long lossMillis, long maxBackoffMillis, int maxReconnectAttempts) {
+        Objects.requireNonNull(connection);
+        Objects.requireNonNull(onState);
+        Objects.requireNonNull(onLinkLost);
+        if (gapMillis <= 0 || lossMillis < gapMillis) {
+            throw new IllegalArgumentException("loss timeout must be greater than gap timeout");
+        }
+        this.connection = connection;
+        this.onState = onState;
+        this.onLinkLost = onLinkLost;
+        this.keepaliveNanos = TimeUnit.MILLISECONDS.toNanos(keepaliveMillis);
+        this.gapNanos = TimeUnit.MILLISECONDS.toNanos(gapMillis);
+        this.lossNanos = TimeUnit.MILLISECONDS.toNanos(lossMillis);
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.maxReconnectAttempts = maxReconnectAttempts;
+    }
+
+    /**
+     * Starts receiving state and supervising the link.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        reconnecting = false;
+        consecutiveAttempts = 0;
+        backoffMillis = INITIAL_BACKOFF_MILLIS;
+        generation++;
+        connection.startReceivingState(this::receiveState);
+        checkTask = scheduler.scheduleAtFixedRate(this::check, CHECK_INTERVAL_MILLIS, CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops supervising the link. Does not close the connection.
+     */
+    public synchronized void stop() {
+        running = false;
+        generation++;
+        if (checkTask != null) {
+            checkTask.cancel(false);
+            checkTask = null;
+        }
+    }
+
+    public LinkStats getStats() {
+        return new LinkStats(
+                reconnecting,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connection.getLastStateNanos()),
+                TimeUnit.NANOSECONDS.toMillis(longestGapNanos),
+                stateGaps,
+                keepalivesSent.get(),
+                keepaliveFailures.get(),
+                reconnectAttempts.get(),
+                reconnects.get()
+        );
+    }
+
+    private void receiveState(State state, Throwable throwable) {
+        // receive errors are timeouts of the state socket; link loss is detected from the state gap instead
+        if (state != null) {
+            onState.accept(state);
+        }
+    }
+
+    private void check() {
+        if (!running || reconnecting) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        long sinceState = now - connection.getLastStateNanos();
+        if (sinceState > gapNanos) {
+            if (!inGap) {
+                inGap = true;
+                stateGaps++;
+            }
+            currentGapNanos = sinceState;
+            if (sinceState > lossNanos) {
+                endGap();
+                reconnecting = true;
+                scheduleReconnect(generation, new RuntimeException("link lost"));
+                return;
+            }
+        } else {
+            if (inGap) {
+                endGap();
+            }
+            synchronized (this) {
+                if (consecutiveAttempts > 0 && now - recoveredNanos > STABLE_NANOS) {
+                    consecutiveAttempts = 0;
+                    backoffMillis = INITIAL_BACKOFF_MILLIS;
+                }
+            }
+        }
+
+        if (!keepalivePending && now - connection.getLastCommandNanos() > keepaliveNanos) {
+            keepalivePending = true;
+            keepalivesSent.incrementAndGet();
+            connection.scheduleCommand(Command.COMMAND).whenComplete((u, t) -> {
+                if (t != null) {
+                    keepaliveFailures.incrementAndGet();
+                }
+                keepalivePending = false;
+            });
+        }
+    }
+
+    private void endGap() {
+        inGap = false;
+        if (currentGapNanos > longestGapNanos) {
+            longestGapNanos = currentGapNanos;
+        }
+    }
+
+    /**
+     * @return whether a reconnect chain started in the given generation still belongs to the current supervision,
+     * that is, the link has not been stopped or restarted since
+     */
+    private boolean isCurrent(int chainGeneration) {
+        return running && generation == chainGeneration;
+    }
+
+    /**
+     * Schedules the next reconnect attempt. The attempt count and backoff carry over between losses, so a link that
+     * keeps failing soon after reconnecting still gives up; they are reset once the link has been stable for a while.
+     *
+     * @param cause why the link was lost or the previous attempt failed
+     */
+    private void scheduleReconnect(int chainGeneration, Throwable cause) {
+        synchronized (this) {
+            if (!isCurrent(chainGeneration)) {
+                return;
+            }
+            if (consecutiveAttempts < maxReconnectAttempts) {
+                long delay = consecutiveAttempts == 0 ? 0 : backoffMillis;
+                if (consecutiveAttempts > 0) {
+                    backoffMillis = Math.min(backoffMillis * 2, maxBackoffMillis);
+                }
+                consecutiveAttempts++;
+                scheduler.schedule(() -> attemptReconnect(chainGeneration), delay, TimeUnit.MILLISECONDS);
+                return;
+            }
+            reconnecting = false;
+            stop();
+        }
+        onLinkLost.accept(cause);
+    }
+
+    private void attemptReconnect(int chainGeneration) {
+        if (!isCurrent(chainGeneration)) {
+            return;
+        }
+        reconnectAttempts.incrementAndGet();
+        CompletableFuture.supplyAsync(() -> {
+            int connectionEpoch;
+            // under the supervisor lock, so stop() cannot run between the check and re-opening the socket
+            synchronized (this) {
+                if (!isCurrent(chainGeneration)) {
+                    throw new CancellationException("link supervision stopped");
+                }
+                connection.disconnect();
+                connection.connect();
+                connectionEpoch = connection.getEpoch();
+            }
+            connection.enterSdkMode(Connection.DEFAULT_HANDSHAKE_ATTEMPT_MILLIS, Connection.DEFAULT_HANDSHAKE_ATTEMPTS);
+            synchronized (this) {
+                if (!isCurrent(chainGeneration)) {
+                    // close the socket this attempt opened, unless the user has re-opened the connection since
+                    connection.disconnect(connectionEpoch);
+                    throw new CancellationException("link supervision stopped");
+                }
+                connection.startReceivingState(this::receiveState);
+            }
+            return System.nanoTime();
+        }, connection.getExecutor()).whenComplete((since, t) -> {
+            if (t != null) {
+                scheduleReconnect(chainGeneration, t);
+            } else {
+                awaitState(chainGeneration, since);
+            }
+        });
+    }
+
+    /**
+     * The drone may answer commands while its state still does not get through, so a reconnect only succeeds once a
+     * state packet has been received after it.
+     */
+    private void awaitState(int chainGeneration, long since) {
+        synchronized (this) {
+            if (!isCurrent(chainGeneration)) {
+                return;
+            }
+            long now = System.nanoTime();
+            if (connection.getLastStateNanos() - since > 0) {
+                reconnects.incrementAndGet();
+                recoveredNanos = now;
+                reconnecting = false;
+                return;
+            }
+            if (now - since <= lossNanos) {
+                scheduler.schedule(() -> awaitState(chainGeneration, since), CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                return;
+            }
+        }
+        scheduleReconnect(chainGeneration, new RuntimeException("no state received after reconnecting"));
+    }
+}
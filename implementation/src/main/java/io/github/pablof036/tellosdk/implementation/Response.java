@@ -0,0 +1,110 @@
+package io.github.pablof036.tellosdk.implementation;
+
+/**
+ * Classifies and parses raw drone responses without decoding them into Strings
+ */
+final class Response {
+    private static final byte[] ERROR = {'e', 'r', 'r', 'o', 'r'};
+
+    enum Kind {
+        /**
+         * "error", optionally followed by a reason such as "error Motor stop"
+         */
+        ERROR,
+        NUMERIC,
+        OTHER
+    }
+
+    private Response() {
+    }
+
+    static Kind classify(byte[] data, int length) {
+        int start = trimStart(data, length);
+        int end = trimEnd(data, start, length);
+
+        if (matches(data, start, end, ERROR)) {
+            return Kind.ERROR;
+        }
+        if (isNumeric(data, start, end)) {
+            return Kind.NUMERIC;
+        }
+        return Kind.OTHER;
+    }
+
+    /**
+     * Parses a numeric response such as the reply to "bat?". A fractional part, if any, is truncated.
+     */
+    static int parseInt(byte[] data, int length) {
+        int start = trimStart(data, length);
+        int end = trimEnd(data, start, length);
+        if (!isNumeric(data, start, end)) {
+            throw new NumberFormatException("response is not numeric");
+        }
+
+        boolean negative = data[start] == '-';
+        int i = negative ? start + 1 : start;
+        long value = 0;
+        for (; i < end && data[i] != '.'; i++) {
+            value = value * 10 + (data[i] - '0');
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw new NumberFormatException("response out of range");
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("response out of range");
+        }
+        return (int) value;
+    }
+
+    private static boolean isNumeric(byte[] data, int start, int end) {
+        int i = start;
+        if (i < end && data[i] == '-') {
+            i++;
+        }
+        int digits = 0;
+        boolean dot = false;
+        for (; i < end; i++) {
+            if (data[i] >= '0' && data[i] <= '9') {
+                digits++;
+            } else if (data[i] == '.' && !dot) {
+                dot = true;
+            } else {
+                return false;
+            }
+        }
+        return digits > 0;
+    }
+
+    private static boolean matches(byte[] data, int start, int end, byte[] prefix) {
+        if (end - start < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (data[start + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int trimStart(byte[] data, int length) {
+        int start = 0;
+        while (start < length && isWhitespace(data[start])) {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(byte[] data, int start, int length) {
+        int end = length;
+        while (end > start && isWhitespace(data[end - 1])) {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return (b & 0xff) <= ' ';
+    }
+}
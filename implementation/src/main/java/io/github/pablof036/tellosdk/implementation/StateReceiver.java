@@ -0,0 +1,84 @@
+package io.github.pablof036.tellosdk.implementation;
+
+import java.io.IOException;
+import java.net.*;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Owns the state socket. Every drone sends its state to the same port, so a single socket and thread receive the
+ * state of all connected drones and hand each packet to the {@link StateServer} registered for its source address.
+ */
+class StateReceiver implements Runnable {
+    private static final int PORT = 8890;
+
+    private static StateReceiver instance;
+
+    private final DatagramSocket socket;
+    private final Thread thread;
+    private final Map<InetAddress, StateServer> servers = new ConcurrentHashMap<>();
+    private volatile boolean stopped;
+
+    private StateReceiver(ThreadFactory threadFactory) throws SocketException {
+        socket = new DatagramSocket(PORT);
+        socket.setSoTimeout(2000);
+        thread = threadFactory.newThread(this);
+    }
+
+    /**
+     * Registers a server for the state sent by its drone, opening the state socket if this is the first one.
+     *
+     * @param threadFactory factory for the receiving thread, used only if the socket is not open yet
+     */
+    static synchronized void register(StateServer server, ThreadFactory threadFactory) throws SocketException {
+        if (instance == null) {
+            instance = new StateReceiver(threadFactory);
+            instance.thread.start();
+        }
+        if (instance.servers.putIfAbsent(server.getAddress(), server) != null) {
+            throw new IllegalStateException("already receiving state from " + server.getAddress());
+        }
+    }
+
+    /**
+     * Unregisters a server, closing the state socket and waiting for its thread if it was the last one.
+     */
+    static void unregister(StateServer server) throws InterruptedException {
+        StateReceiver stopping;
+        synchronized (StateReceiver.class) {
+            if (instance == null || !instance.servers.remove(server.getAddress(), server)) {
+                return;
+            }
+            if (!instance.servers.isEmpty()) {
+                return;
+            }
+            stopping = instance;
+            instance = null;
+            stopping.stopped = true;
+            stopping.socket.close();
+        }
+        if (Thread.currentThread() != stopping.thread) {
+            stopping.thread.join();
+        }
+    }
+
+    @Override
+    public void run() {
+        while (!stopped) {
+            DatagramPacket message = new DatagramPacket(new byte[1024], 1024);
+            try {
+                socket.receive(message);
+                StateServer server = servers.get(message.getAddress());
+                if (server != null) {
+                    server.receive(message);
+                }
+            } catch (IOException e) {
+                if (!stopped) {
+                    servers.values().forEach(s -> s.fail(e));
+                }
+            }
+        }
+        socket.close();
+    }
+}
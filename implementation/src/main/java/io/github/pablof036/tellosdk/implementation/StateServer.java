@@ -4,40 +4,61 @@ import java.io.IOException;
 import java.net.*;
 import java.nio.charset.StandardCharsets;
 import java.util.Objects;
-import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
 import java.util.function.BiConsumer;
 
 /**
  * Receives state updates from drone
  */
-class StateServer extends Thread {
-    private final DatagramSocket socket;
+class StateServer {
+    private final InetAddress address;
     private final BiConsumer<io.github.pablof036.tellosdk.implementation.State, Throwable> onReceive;
+    private final Executor executor;
+    private final ThreadFactory threadFactory;
+    private volatile long lastReceiveNanos = System.nanoTime();
 
-    public StateServer(BiConsumer<io.github.pablof036.tellosdk.implementation.State, Throwable> onReceive) throws SocketException {
+    public StateServer(InetAddress address, BiConsumer<io.github.pablof036.tellosdk.implementation.State, Throwable> onReceive, Executor executor, ThreadFactory threadFactory) {
+        Objects.requireNonNull(address);
         Objects.requireNonNull(onReceive);
+        Objects.requireNonNull(executor);
+        Objects.requireNonNull(threadFactory);
+        this.address = address;
         this.onReceive = onReceive;
+        this.executor = executor;
+        this.threadFactory = threadFactory;
+    }
+
+    public void start() throws SocketException {
+        StateReceiver.register(this, threadFactory);
+    }
+
+    /**
+     * Stops receiving. If no other drone is receiving state, closes the state socket and waits for its thread.
+     */
+    public void stop() throws InterruptedException {
+        StateReceiver.unregister(this);
+    }
+
+    public InetAddress getAddress() {
+        return address;
+    }
+
+    public long getLastReceiveNanos() {
+        return lastReceiveNanos;
+    }
 
-        socket = new DatagramSocket(8890);
-        socket.setSoTimeout(2000);
+    void receive(DatagramPacket message) {
+        lastReceiveNanos = System.nanoTime();
+        executor.execute(() -> {
+            io.github.pablof036.tellosdk.implementation.State state = io.github.pablof036.tellosdk.implementation.State.parse(new String(message.getData(), 0, message.getLength(), StandardCharsets.UTF_8));
+            onReceive.accept(state, null);
+        });
     }
 
-    @Override
-    public void run() {
-        while (!Thread.interrupted()) {
-            DatagramPacket message = new DatagramPacket(new byte[1024], 1024);
-            try {
-                socket.receive(message);
-                ForkJoinPool.commonPool().execute(() -> {
-                    io.github.pablof036.tellosdk.implementation.State state = io.github.pablof036.tellosdk.implementation.State.parse(new String(message.getData(), 0, message.getLength(), StandardCharsets.UTF_8));
-                    onReceive.accept(state, null);
-                });
-            } catch (IOException e) {
-                ForkJoinPool.commonPool().execute(() -> {
-                    onReceive.accept(null, e);
-                });
-            }
-        }
-        socket.close();
+    void fail(IOException e) {
+        executor.execute(() -> {
+            onReceive.accept(null, e);
+        });
     }
 }
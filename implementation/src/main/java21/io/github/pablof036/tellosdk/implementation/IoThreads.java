@@ -0,0 +1,34 @@
+package io.github.pablof036.tellosdk.implementation;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Provides the default threads used for blocking drone I/O.
+ * This is the Java 21 version: every command, state callback and long running loop gets its own virtual thread,
+ * so a large fleet does not need a platform thread per blocked socket.
+ * Virtual threads are always daemon threads, so an open connection does not keep the JVM alive.
+ */
+public final class IoThreads {
+    private static final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private static final ThreadFactory threadFactory = Thread.ofVirtual().name("tello-", 0).factory();
+
+    private IoThreads() {
+    }
+
+    /**
+     * @return executor used for blocking command I/O and for state callbacks
+     */
+    public static Executor executor() {
+        return executor;
+    }
+
+    /**
+     * @return factory for long running loops, such as state reception
+     */
+    public static ThreadFactory threadFactory() {
+        return threadFactory;
+    }
+}
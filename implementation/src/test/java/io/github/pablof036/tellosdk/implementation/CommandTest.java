@@ -0,0 +1,40 @@
+package io.github.pablof036.tellosdk.implementation;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+public class CommandTest {
+    private final byte[] buffer = new byte[64];
+
+    private String encoded(int length) {
+        return new String(buffer, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    public void encodesCommandWithoutArgument() {
+        assertEquals("takeoff", encoded(Command.TAKEOFF.encode(buffer)));
+        assertEquals("bat?", encoded(Command.BATTERY.encode(buffer)));
+    }
+
+    @Test
+    public void encodesCommandWithArgument() {
+        assertEquals("forward 120", encoded(Command.FORWARD.encode(buffer, 120)));
+        assertEquals("cw 0", encoded(Command.CLOCKWISE.encode(buffer, 0)));
+    }
+
+    @Test
+    public void encodesNegativeAndExtremeArguments() {
+        assertEquals("up -20", encoded(Command.UP.encode(buffer, -20)));
+        assertEquals("up 2147483647", encoded(Command.UP.encode(buffer, Integer.MAX_VALUE)));
+        assertEquals("up -2147483648", encoded(Command.UP.encode(buffer, Integer.MIN_VALUE)));
+    }
+
+    @Test
+    public void overwritesLongerPreviousCommand() {
+        Command.COUNTERCLOCKWISE.encode(buffer, 360);
+        assertEquals("up 20", encoded(Command.UP.encode(buffer, 20)));
+    }
+}
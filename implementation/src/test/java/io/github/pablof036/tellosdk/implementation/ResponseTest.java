@@ -0,0 +1,80 @@
+package io.github.pablof036.tellosdk.implementation;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+public class ResponseTest {
+
+    private static Response.Kind classify(String response) {
+        byte[] bytes = response.getBytes(StandardCharsets.US_ASCII);
+        return Response.classify(bytes, bytes.length);
+    }
+
+    private static int parseInt(String response) {
+        byte[] bytes = response.getBytes(StandardCharsets.US_ASCII);
+        return Response.parseInt(bytes, bytes.length);
+    }
+
+    @Test
+    public void classifiesErrorsByPrefix() {
+        assertEquals(Response.Kind.ERROR, classify("error"));
+        assertEquals(Response.Kind.ERROR, classify("error Motor stop"));
+        assertEquals(Response.Kind.ERROR, classify(" error\r\n"));
+    }
+
+    @Test
+    public void classifiesNumbers() {
+        assertEquals(Response.Kind.NUMERIC, classify("87\r\n"));
+        assertEquals(Response.Kind.NUMERIC, classify("100.0"));
+        assertEquals(Response.Kind.NUMERIC, classify("-5"));
+    }
+
+    @Test
+    public void classifiesEverythingElseAsOther() {
+        assertEquals(Response.Kind.OTHER, classify("ok"));
+        assertEquals(Response.Kind.OTHER, classify(""));
+        assertEquals(Response.Kind.OTHER, classify("-"));
+        assertEquals(Response.Kind.OTHER, classify("1.2.3"));
+        assertEquals(Response.Kind.OTHER, classify("12abc"));
+    }
+
+    @Test
+    public void ignoresSurroundingWhitespace() {
+        assertEquals(87, parseInt("  87\r\n"));
+    }
+
+    @Test
+    public void truncatesFractionalPart() {
+        assertEquals(100, parseInt("100.0"));
+        assertEquals(9, parseInt("9.99"));
+    }
+
+    @Test
+    public void parsesNegativeNumbers() {
+        assertEquals(-5, parseInt("-5"));
+        assertEquals(Integer.MIN_VALUE, parseInt("-2147483648"));
+    }
+
+    @Test
+    public void parsesMaxValue() {
+        assertEquals(Integer.MAX_VALUE, parseInt("2147483647"));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void rejectsOverflow() {
+        parseInt("2147483648");
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void rejectsNegativeOverflow() {
+        parseInt("-2147483649");
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void rejectsNonNumericResponse() {
+        parseInt("ok");
+    }
+}